@@ -0,0 +1,72 @@
+/* Benchmarks learners against plain Q-learning
+ * Both players train from empty Q tables against eachother until each of their greedy policies
+ * plays the optimal move (see OptimalPolicy) in at least the target fraction of its decision states */
+public class Benchmark {
+    static int EVAL_INTERVAL = 1000; // games between optimal move rate checks
+
+    /* Compares prioritized sweeping with plain Q-learning: wall-clock time to the target and model memory */
+    public static void prioritizedSweeping(double targetRate, int planningSteps, int maxGames) throws InterruptedException {
+        System.out.println("Target Optimal Move Rate: " + targetRate);
+        System.out.println();
+
+        System.out.println("Q-Learning");
+        ComputerPlayer q1 = new ComputerPlayer(1, "", 0.95, 0.2, 0.3, false);
+        ComputerPlayer q2 = new ComputerPlayer(-1, "", 0.95, 0.2, 0.3, false);
+        runToTarget(q1, q2, targetRate, maxGames);
+
+        System.out.println("Prioritized Sweeping (" + planningSteps + " backups/game)");
+        PrioritizedSweepingPlayer ps1 = new PrioritizedSweepingPlayer(1, "", 0.95, 0.2, 0.3, false, planningSteps);
+        PrioritizedSweepingPlayer ps2 = new PrioritizedSweepingPlayer(-1, "", 0.95, 0.2, 0.3, false, planningSteps);
+        runToTarget(ps1, ps2, targetRate, maxGames);
+        long modelBytes = ps1.getModelBytes() + ps2.getModelBytes();
+        System.out.println("Model Memory: " + (modelBytes / 1024) + " KB");
+        System.out.println();
+    }
+
+
+    /* Compares count based exploration (UCB, optionally with per entry learning rates) with decaying epsilon greedy: games to the target */
+    public static void exploration(double targetRate, double ucbConstant, int maxGames) throws InterruptedException {
+        System.out.println("Target Optimal Move Rate: " + targetRate);
+        System.out.println();
+
+        System.out.println("Epsilon Greedy (decaying)");
+        ComputerPlayer e1 = new ComputerPlayer(1, "", 0.95, 0.2, 0.3, true);
+        ComputerPlayer e2 = new ComputerPlayer(-1, "", 0.95, 0.2, 0.3, true);
+        runToTarget(e1, e2, targetRate, maxGames);
+        System.out.println();
+
+        System.out.println("UCB (c = " + ucbConstant + ")");
+        ComputerPlayer u1 = new ComputerPlayer(1, "", 0.95, 0.2, 0.3, true);
+        ComputerPlayer u2 = new ComputerPlayer(-1, "", 0.95, 0.2, 0.3, true);
+        u1.useCountExploration(ucbConstant, false);
+        u2.useCountExploration(ucbConstant, false);
+        runToTarget(u1, u2, targetRate, maxGames);
+        System.out.println();
+
+        System.out.println("UCB (c = " + ucbConstant + ") with 1/n learning rates");
+        ComputerPlayer c1 = new ComputerPlayer(1, "", 0.95, 0.2, 0.3, true);
+        ComputerPlayer c2 = new ComputerPlayer(-1, "", 0.95, 0.2, 0.3, true);
+        c1.useCountExploration(ucbConstant, true);
+        c2.useCountExploration(ucbConstant, true);
+        runToTarget(c1, c2, targetRate, maxGames);
+        System.out.println();
+    }
+
+
+    /* Trains p1 and p2 until both reach the target optimal move rate (or maxGames), then displays the results (see TrainingRun) */
+    private static void runToTarget(ComputerPlayer p1, ComputerPlayer p2, double targetRate, int maxGames) throws InterruptedException {
+        TrainingRun run = new TrainingRun(p1, p2, EVAL_INTERVAL);
+        int gamesToTarget = run.trainToTarget(targetRate, maxGames);
+        long trainMillis = Math.round(run.getTrainNanos() / 1e6);
+        if(gamesToTarget != -1) {
+            System.out.println("Games to Target: " + gamesToTarget);
+            System.out.println("Time to Target: " + trainMillis + " ms");
+        }
+        else {
+            System.out.println("Target not reached in " + run.getGamesPlayed() + " games (" + trainMillis + " ms)");
+        }
+        System.out.println("P1 Optimal Move Rate: " + Math.round(run.getP1OptimalRate() * 1000) / 1000.0);
+        System.out.println("P2 Optimal Move Rate: " + Math.round(run.getP2OptimalRate() * 1000) / 1000.0);
+        System.out.println("Q Table Entries: " + (p1.getQTable().size() + p2.getQTable().size()));
+    }
+}
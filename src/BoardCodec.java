@@ -0,0 +1,144 @@
+/* Encodes ticTakToe boards and moves as compact integer codes
+ * State code: base 3 number with one digit per cell (0 = empty, 1 = player1, 2 = player2)
+ * Action code: index of the cell, row * NUM_COLS + col 
+ * Pair code: one per (state, action), stateCode * NUM_CELLS + actionCode */
+public class BoardCodec {
+    static int NUM_COLS = 3;
+    static int NUM_ROWS = 3;
+    static int NUM_CELLS = NUM_ROWS * NUM_COLS;
+    static int NUM_STATES = 19683; // 3^9
+    static int NUM_PAIRS = NUM_STATES * NUM_CELLS;
+
+    // lookup tables for decoding (built once so they can be shared between threads)
+    private static final String[] STATE_STRINGS = buildStateStrings();
+    private static final String[] ACTION_STRINGS = buildActionStrings();
+
+
+    /* Returns the state code of a board */
+    public static int encode(int[][] board) {
+        int code = 0;
+        for(int i = 0; i < NUM_ROWS; i++) {
+            for(int j = 0; j < NUM_COLS; j++) {
+                code = (code * 3) + cellDigit(board[i][j]);
+            }
+        }
+        return code;
+    }
+
+
+    /* Returns the state code of a flattened board (cell k = row * NUM_COLS + col) */
+    public static int encode(int[] cells) {
+        int code = 0;
+        for(int k = 0; k < NUM_CELLS; k++) {
+            code = (code * 3) + cellDigit(cells[k]);
+        }
+        return code;
+    }
+
+
+    /* Returns the state code of a board hash (see Game.hashBoard) */
+    public static int encode(String state) {
+        int code = 0;
+        int k = 0;
+        while(k < state.length()) {
+            char c = state.charAt(k);
+            if(c == '-') {
+                // "-1" is player2
+                code = (code * 3) + 2;
+                k += 2;
+            }
+            else {
+                code = (code * 3) + (c - '0');
+                k += 1;
+            }
+        }
+        return code;
+    }
+
+
+    /* Returns the board hash (see Game.hashBoard) of a state code */
+    public static String decode(int code) {
+        return STATE_STRINGS[code];
+    }
+
+
+    /* Returns the action code of a move "row,col" */
+    public static int encodeAction(String action) {
+        int row = action.charAt(0) - '0';
+        int col = action.charAt(2) - '0';
+        return (row * NUM_COLS) + col;
+    }
+
+
+    /* Returns the move "row,col" of an action code */
+    public static String decodeAction(int code) {
+        return ACTION_STRINGS[code];
+    }
+
+
+    /* Returns the pair code of a state (board hash) and move "row,col" */
+    public static int encodePair(String state, String action) {
+        return encodePair(encode(state), action);
+    }
+
+
+    /* Returns the pair code of a state code and move "row,col" */
+    public static int encodePair(int stateCode, String action) {
+        return (stateCode * NUM_CELLS) + encodeAction(action);
+    }
+
+
+    /* Returns the pair code of a Q table key "state:action" */
+    public static int encodePair(String key) {
+        int split = key.indexOf(':');
+        return encodePair(key.substring(0, split), key.substring(split + 1));
+    }
+
+
+    /* Returns the Q table key "state:action" of a pair code */
+    public static String decodePair(int pair) {
+        return decode(pair / NUM_CELLS) + ":" + decodeAction(pair % NUM_CELLS);
+    }
+
+
+    /* Maps a board symbol (0, 1, -1) to its base 3 digit */
+    private static int cellDigit(int symbol) {
+        if(symbol == -1) {
+            return 2;
+        }
+        return symbol;
+    }
+
+
+    private static String[] buildStateStrings() {
+        String[] states = new String[NUM_STATES];
+        for(int code = 0; code < NUM_STATES; code++) {
+            // peel off digits from the last cell to the first
+            String[] cells = new String[NUM_CELLS];
+            int rest = code;
+            for(int k = NUM_CELLS - 1; k >= 0; k--) {
+                int digit = rest % 3;
+                rest = rest / 3;
+                if(digit == 2) {
+                    cells[k] = "-1";
+                }
+                else {
+                    cells[k] = Integer.toString(digit);
+                }
+            }
+            states[code] = String.join("", cells);
+        }
+        return states;
+    }
+
+
+    private static String[] buildActionStrings() {
+        String[] actions = new String[NUM_CELLS];
+        for(int i = 0; i < NUM_ROWS; i++) {
+            for(int j = 0; j < NUM_COLS; j++) {
+                actions[(i * NUM_COLS) + j] = Integer.toString(i) + "," + Integer.toString(j);
+            }
+        }
+        return actions;
+    }
+}
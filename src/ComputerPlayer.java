@@ -1,6 +1,6 @@
-import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.Scanner;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -9,7 +9,9 @@ import java.io.FileNotFoundException;
 
 /* Represents an AI ticTakToe player
  * Learns using Reinforcement Learning: 
-     * Tabular Q-Learning with epsilon greedy approach */
+     * Tabular Q-Learning with epsilon greedy approach 
+     * Optionally explores with UCB on per (state, action) visit counts instead of epsilon 
+ * The Q table is private to the player, or shared through a memory-mapped file (see MappedQTable) */
 public class ComputerPlayer extends Player {
     private String qFile; 
     private double gamma; // Discount Factor
@@ -18,13 +20,20 @@ public class ComputerPlayer extends Player {
     private String currState;
     private String nextState; 
     private String lastAction;
-    private HashMap<String, Double> qTable; // key = state + action, value = long term discounted reward
+    private QTable qTable; // key = state + action, value = long term discounted reward (and visit counts)
+    private MappedQTable sharedTable; // qTable when attached to a shared table, otherwise null
     private boolean isUsingDecay; 
+    private double alphaDecayRate; 
+    private double epsilonDecayRate; 
+    private boolean isUsingUCB; 
+    private double ucbConstant; // weight of the exploration bonus
+    private boolean isUsingCountAlpha; // learning rate 1/n per (state, action) instead of the global alpha
 
     static int NUM_COLS = 3;
     static int NUM_ROWS = 3;
     static double ALPHA_DECAY_RATE = 0.999999; 
     static double EPSILON_DECAY_RATE = 0.999999; 
+    static double MIN_ALPHA = 0.001; 
 
     public ComputerPlayer(int symbol, String qFile, double gamma, double alpha, double epsilon, boolean isUsingDecay) {
         super(symbol); 
@@ -35,16 +44,54 @@ public class ComputerPlayer extends Player {
         this.currState = ""; 
         this.nextState = "";
         this.lastAction = "";
-        this.qTable = new HashMap<String, Double>();
+        this.qTable = new HeapQTable();
+        this.sharedTable = null; 
         this.isUsingDecay = isUsingDecay; 
+        this.alphaDecayRate = ALPHA_DECAY_RATE; 
+        this.epsilonDecayRate = EPSILON_DECAY_RATE; 
+        this.isUsingUCB = false; 
+        this.ucbConstant = 0; 
+        this.isUsingCountAlpha = false; 
     }
 
 
-    public HashMap<String, Double> getQTable() {
+    /* Replaces the default decay rates (ALPHA_DECAY_RATE, EPSILON_DECAY_RATE) for this player */
+    public void setDecayRates(double alphaDecayRate, double epsilonDecayRate) {
+        this.alphaDecayRate = alphaDecayRate; 
+        this.epsilonDecayRate = epsilonDecayRate; 
+    }
+
+
+    /* Switches exploration from epsilon greedy to UCB on the visit counts: 
+        * a = argmax Q(s, a) + c * sqrt(ln N(s) / n(s, a)), untried actions first 
+     * If isUsingCountAlpha, each (state, action) learns at rate max(1/n(s, a), MIN_ALPHA) instead of the decaying global alpha */
+    public void useCountExploration(double ucbConstant, boolean isUsingCountAlpha) {
+        this.isUsingUCB = true; 
+        this.ucbConstant = ucbConstant; 
+        this.isUsingCountAlpha = isUsingCountAlpha; 
+    }
+
+
+    public QTable getQTable() {
         return this.qTable; 
     }
 
 
+    /* Replaces the players Q table with the shared table in the qFile (created if it does not exist yet and isCreating)
+     * alpha and epsilon are then shared as well, loadQFunction/saveQFunction only sync them and flush the file */
+    public void attachSharedTable(boolean isCreating) throws IOException {
+        this.sharedTable = new MappedQTable(this.qFile, this.alpha, this.epsilon, isCreating); 
+        this.qTable = this.sharedTable; 
+        this.alpha = this.sharedTable.getAlpha(); 
+        this.epsilon = this.sharedTable.getEpsilon(); 
+    }
+
+
+    public boolean isShared() {
+        return this.sharedTable != null; 
+    }
+
+
     public void setCurrState(String state) {        
         this.currState = state; 
     }
@@ -75,6 +122,11 @@ public class ComputerPlayer extends Player {
     }
 
 
+    public double getGamma() {
+        return this.gamma; 
+    }
+
+
     public double getAlpha() {
         return this.alpha; 
     }
@@ -84,22 +136,35 @@ public class ComputerPlayer extends Player {
         return this.epsilon; 
     }
 
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon; 
+    }
+
     public boolean isUsingDecay() {   
         return this.isUsingDecay; 
     }
 
     /* Decays the learning rate */
     public void decayAlpha() {
-        if(this.alpha > 0.001) {
-            this.alpha = this.alpha * ALPHA_DECAY_RATE; 
+        if(this.sharedTable != null) {
+            // decay the rate all attached processes use
+            this.alpha = this.sharedTable.decayAlpha(this.alphaDecayRate, 0.001); 
+        }
+        else if(this.alpha > 0.001) {
+            this.alpha = this.alpha * this.alphaDecayRate; 
         }        
     }
     
 
     /* Decays the rate of exploration */
     public void decayEpsilon() {
-        if(this.epsilon > 0.001) {
-            this.epsilon = this.epsilon * EPSILON_DECAY_RATE; 
+        if(this.sharedTable != null) {
+            // decay the rate all attached processes use
+            this.epsilon = this.sharedTable.decayEpsilon(this.epsilonDecayRate, 0.001); 
+        }
+        else if(this.epsilon > 0.001) {
+            this.epsilon = this.epsilon * this.epsilonDecayRate; 
         }
     }
 
@@ -132,10 +197,13 @@ public class ComputerPlayer extends Player {
      * Output: "row,col" */
     @Override
     public String getAction() {
+        if(this.isUsingUCB) {
+            return this.getUCBAction(); 
+        }
         ArrayList<String> possibleActions = this.getPossibleActions(this.currState); 
 
         // Generate a uniform random number in [0, 1]
-        Random rand = new Random(); 
+        Random rand = ThreadLocalRandom.current(); 
         double n = rand.nextDouble(1); 
 
         if(n < this.epsilon) {
@@ -181,28 +249,94 @@ public class ComputerPlayer extends Player {
     }
 
 
+    /* Returns the action with the highest upper confidence bound in the current state (ties broken randomly) */
+    public String getUCBAction() {
+        ArrayList<String> possibleActions = this.getPossibleActions(this.currState); 
+        int stateCode = BoardCodec.encode(this.currState); 
+        int stateVisits = 0; 
+        for(String a : possibleActions) {
+            stateVisits += this.qTable.getVisitCount(BoardCodec.encodePair(stateCode, a)); 
+        }
+        double logVisits = Math.log(Math.max(stateVisits, 1)); 
+
+        double maxBound = Double.NEGATIVE_INFINITY; 
+        ArrayList<String> bestActions = new ArrayList<String>(); 
+        for(String a : possibleActions) {
+            int n = this.qTable.getVisitCount(BoardCodec.encodePair(stateCode, a)); 
+            double bound = Double.POSITIVE_INFINITY; // untried actions are tried first
+            if(n > 0) {
+                double q = this.qTable.getOrDefault(this.currState + ":" + a, 0.0); 
+                bound = q + (this.ucbConstant * Math.sqrt(logVisits / n)); 
+            }
+            if(bound > maxBound) {
+                maxBound = bound; 
+                bestActions.clear(); 
+            }
+            if(bound == maxBound) {
+                bestActions.add(a); 
+            }
+        }
+        Random rand = ThreadLocalRandom.current(); 
+        return bestActions.get(rand.nextInt(bestActions.size())); 
+    }
+
+
+    /* Counts a visit to (currentState, lastAction) and returns the learning rate for its update */
+    private double visit() {
+        int visitCount = this.qTable.addVisit(BoardCodec.encodePair(this.currState, this.lastAction)); 
+        if(this.isUsingCountAlpha) {
+            return Math.max(1.0 / visitCount, MIN_ALPHA); 
+        }
+        return this.alpha; 
+    }
+
+
     /* Updates Q table given the reward for observation: (currentState, lastAction) -> (nextState)
      * Uses Bellman's Optimality Equation: 
         * Qest(Si, a) = α[ri + γ(maxa' Qest(Sj, a'))] + (1-α)Qest(Si, a) */ 
     public void updateQ(double reward) {
         String key = this.currState + ":" + this.lastAction; 
-        if(!this.qTable.containsKey(key)) {
-            // State has not been visited yet, start its long term value as zero (non-optimistic)
-            this.qTable.put(key, 0.0); 
-        }
-        double prevQ = this.qTable.get(key); 
-        // get all possible actions from the next state, and find the maximum Q value         
-        ArrayList<String> possibleActions = this.getPossibleActions(this.nextState); 
+        double maxQ = this.getMaxQ(this.nextState); 
+        double alpha = this.visit(); 
+        // update q with Bellman's Equation (current estimated long term reward + predicted reward from next state)
+        // if the state has not been visited yet, its long term value starts as zero (non-optimistic)
+        this.qTable.update(key, alpha, reward + (this.gamma * maxQ)); 
+    }
+
+
+    /* Returns the maximum Q value over all possible actions from the given state */
+    protected double getMaxQ(String state) {
+        ArrayList<String> possibleActions = this.getPossibleActions(state); 
         double maxQ = (Double.MIN_VALUE); 
         for(String a: possibleActions) {
-            String newKey = this.nextState + ":" + a; 
-            if(this.qTable.containsKey(newKey)) {
-                maxQ = Math.max(maxQ, this.qTable.get(newKey)); 
+            String key = state + ":" + a; 
+            if(this.qTable.containsKey(key)) {
+                maxQ = Math.max(maxQ, this.qTable.get(key)); 
             }
         }
-        // update q with Bellman's Equation (current estimated long term reward + predicted reward from next state)
-        double newQ = (this.alpha * (reward + (this.gamma * maxQ))) + ((1-this.alpha)*prevQ);
-        this.qTable.put(key, newQ); 
+        return maxQ; 
+    }
+
+
+    /* Returns the actions with the highest learned Q value in the given state (several if tied)
+     * Actions that have no Q value yet are ignored */
+    public ArrayList<String> getGreedyActions(String state) {
+        ArrayList<String> greedyActions = new ArrayList<String>(); 
+        double maxQ = -Double.MAX_VALUE; 
+        for(String a : this.getPossibleActions(state)) {
+            String key = state + ":" + a; 
+            if(this.qTable.containsKey(key)) {
+                double q = this.qTable.get(key); 
+                if(q > maxQ) {
+                    maxQ = q; 
+                    greedyActions.clear(); 
+                }
+                if(q == maxQ) {
+                    greedyActions.add(a); 
+                }
+            }
+        }
+        return greedyActions; 
     }
 
 
@@ -210,17 +344,18 @@ public class ComputerPlayer extends Player {
      * This is used to update Q for the players last state of the game */
     public void updateQEnd(double reward) {
         String key = this.currState + ":" + this.lastAction;
-        if(!this.qTable.containsKey(key)) {
-            this.qTable.put(key, 0.0); 
-        }
-        double prevQ = this.qTable.get(key); 
-        double newQ = (this.alpha * reward) + ((1-this.alpha)*prevQ); 
-        this.qTable.put(key, newQ);
+        double alpha = this.visit(); 
+        this.qTable.update(key, alpha, reward); 
     }
     
 
-    /* Writes the players Q table, epsilon, and alphs to a file */
+    /* Writes the players Q table (with visit counts), epsilon, and alphs to a file */
     public void saveQFunction() {
+        if(this.sharedTable != null) {
+            // the shared table is its own checkpoint, flush it to disk
+            this.sharedTable.force(); 
+            return; 
+        }
         try {
             FileWriter myWriter = new FileWriter(this.qFile); 
             // write alpha and epsilon 
@@ -232,7 +367,8 @@ public class ComputerPlayer extends Player {
             for(String key : this.qTable.keySet()) {
                 double qValue = this.qTable.get(key); 
                 String qValueStr = Double.toString(qValue); 
-                String toWrite = key + " " + qValueStr + "\n"; 
+                int visitCount = this.qTable.getVisitCount(BoardCodec.encodePair(key)); 
+                String toWrite = key + " " + qValueStr + " " + visitCount + "\n"; 
                 myWriter.write(toWrite); 
             }
             myWriter.close(); 
@@ -243,8 +379,14 @@ public class ComputerPlayer extends Player {
     }
 
     
-    /* Reads the players Q table, epsilon, and alpha from a file  */
+    /* Reads the players Q table (with visit counts, if saved), epsilon, and alpha from a file  */
     public void loadQFunction() {
+        if(this.sharedTable != null) {
+            // the shared table is already loaded, pick up the shared alpha and epsilon
+            this.alpha = this.sharedTable.getAlpha(); 
+            this.epsilon = this.sharedTable.getEpsilon(); 
+            return; 
+        }
         try {
             File myFile = new File(this.qFile);                 
             Scanner myScanner = new Scanner(myFile);             
@@ -263,6 +405,9 @@ public class ComputerPlayer extends Player {
                     String stateActionKey = lineList[0]; 
                     double qValue = Double.parseDouble(lineList[1]); 
                     this.qTable.put(stateActionKey, qValue);
+                    if(lineList.length > 2) {
+                        this.qTable.setVisitCount(BoardCodec.encodePair(stateActionKey), Integer.parseInt(lineList[2])); 
+                    }
                 }
             }            
             myScanner.close(); 
@@ -1,7 +1,15 @@
 import java.util.Scanner;
+import java.util.Arrays;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 
 public class Driver { 
-    public static String USAGE_MESSAGE = "USAGE: java Driver <-t, -t1, -t2, -p> <qFile1> <qFile2>";
+    public static String USAGE_MESSAGE = "USAGE: java Driver <-t, -t1, -t2, -p> <qFile1> <qFile2> [-rec <logFile>] [-ps <planningSteps>] [-ucb <c> [-countAlpha]] [-shared]\n" + 
+                                         "       java Driver -replay <logFile> <qFile1> <qFile2> [-gamma <gamma>] [-alpha <alpha>] [-noDecay]\n" + 
+                                         "       java Driver -bps [-target <targetRate>] [-steps <planningSteps>] [-games <maxGames>]\n" + 
+                                         "       java Driver -bucb [-target <targetRate>] [-c <c>] [-games <maxGames>]\n" + 
+                                         "       java Driver -sweep <specFile> <csvFile> [threads]";
     public static void main(String[] args) throws InterruptedException {
         if(args.length == 0) {
             System.out.println(USAGE_MESSAGE); 
@@ -11,14 +19,17 @@ public class Driver {
         else if(args[0].equals("-t1")) {
             // training only player1 (player2 plays random)
             String qFile = args[1]; 
-            ComputerPlayer p1 = new ComputerPlayer(1, qFile, 0.95, 0.2, 0.3, false); 
+            ComputerPlayer p1 = createLearner(args, 1, qFile, false); 
             ComputerPlayer p2 = new ComputerPlayer(-1, "test.txt", 0.95, 1.0, 1.0, false);
             Game ticTacToe = new Game(p1, p2);
             p1.loadQFunction();
+            setupRecording(args, ticTacToe); 
             // Setup hook for handling SIGINT
             Runtime.getRuntime().addShutdownHook(new Thread() {
                 @Override
                 public void run() {
+                    // close the log first so it does not depend on the save succeeding
+                    ticTacToe.stopRecording(); 
                     System.out.println();
                     System.out.println("Training Paused.");                 
                     ticTacToe.displayStats(); 
@@ -32,14 +43,17 @@ public class Driver {
         else if(args[0].equals("-t2")) {
             // training only player2 (player1 plays random)
             String qFile = args[1]; 
-            ComputerPlayer p2 = new ComputerPlayer(-1, qFile, 0.95, 0.2, 0.3, false); 
+            ComputerPlayer p2 = createLearner(args, -1, qFile, false); 
             ComputerPlayer p1 = new ComputerPlayer(1, "test.txt", 0.95, 1.0, 1.0, false);         
             Game ticTacToe = new Game(p1, p2); 
             p2.loadQFunction(); 
+            setupRecording(args, ticTacToe); 
             // Setup hook for handling SIGINT
             Runtime.getRuntime().addShutdownHook(new Thread() {
                 @Override
                 public void run() {
+                    // close the log first so it does not depend on the save succeeding
+                    ticTacToe.stopRecording(); 
                     System.out.println();
                     System.out.println("Training Paused.");                 
                     ticTacToe.displayStats(); 
@@ -53,14 +67,17 @@ public class Driver {
             // training both players (both players have already gone through some training)
             String p1QFile = args[1]; 
             String p2QFile = args[2]; 
-            ComputerPlayer p1 = new ComputerPlayer(1, p1QFile, 0.95, 0.2, 0.3, true); 
-            ComputerPlayer p2 = new ComputerPlayer(-1, p2QFile, 0.95, 0.2, 0.3, true); 
+            ComputerPlayer p1 = createLearner(args, 1, p1QFile, true); 
+            ComputerPlayer p2 = createLearner(args, -1, p2QFile, true); 
             Game ticTacToe = new Game(p1, p2); 
             ticTacToe.restoreQFunctions();
+            setupRecording(args, ticTacToe); 
             // Setup hook for handling SIGINT
             Runtime.getRuntime().addShutdownHook(new Thread() {
                 @Override
                 public void run() {
+                    // close the log first so it does not depend on the save succeeding
+                    ticTacToe.stopRecording(); 
                     System.out.println();
                     System.out.println("Training Paused.");                 
                     ticTacToe.displayStats(); 
@@ -70,6 +87,110 @@ public class Driver {
             ticTacToe.train(); 
         }
 
+        else if(args[0].equals("-replay")) {
+            // training both players offline from a trajectory log (starts from empty Q tables)
+            // decay is on by default (as with -t), use -noDecay for logs recorded with -t1/-t2
+            String logFile = args[1]; 
+            String p1QFile = args[2]; 
+            String p2QFile = args[3]; 
+            double gamma = 0.95; 
+            double alpha = 0.2; 
+            String gammaStr = getOption(args, "-gamma"); 
+            if(gammaStr != null) {
+                gamma = Double.parseDouble(gammaStr); 
+            }
+            String alphaStr = getOption(args, "-alpha"); 
+            if(alphaStr != null) {
+                alpha = Double.parseDouble(alphaStr); 
+            }
+            boolean isUsingDecay = !Arrays.asList(args).contains("-noDecay"); 
+            ComputerPlayer p1 = new ComputerPlayer(1, p1QFile, gamma, alpha, 0.3, isUsingDecay); 
+            ComputerPlayer p2 = new ComputerPlayer(-1, p2QFile, gamma, alpha, 0.3, isUsingDecay); 
+            TrajectoryReplayer replayer = new TrajectoryReplayer(logFile, p1, p2); 
+            try {
+                replayer.replay(); 
+            } catch (IOException e) {
+                System.out.println("File Error");
+                e.printStackTrace();
+                System.exit(-1); 
+            }
+            replayer.displayStats(); 
+            p1.saveQFunction(); 
+            p2.saveQFunction(); 
+        }
+
+        else if(args[0].equals("-bps")) {
+            // benchmark prioritized sweeping against plain Q-learning
+            double targetRate = 0.95; 
+            int planningSteps = 10; 
+            int maxGames = 1000000; 
+            String targetStr = getOption(args, "-target"); 
+            if(targetStr != null) {
+                targetRate = Double.parseDouble(targetStr); 
+            }
+            String stepsStr = getOption(args, "-steps"); 
+            if(stepsStr != null) {
+                planningSteps = Integer.parseInt(stepsStr); 
+            }
+            String gamesStr = getOption(args, "-games"); 
+            if(gamesStr != null) {
+                maxGames = Integer.parseInt(gamesStr); 
+            }
+            Benchmark.prioritizedSweeping(targetRate, planningSteps, maxGames); 
+        }
+
+        else if(args[0].equals("-bucb")) {
+            // benchmark UCB exploration against decaying epsilon greedy
+            double targetRate = 0.95; 
+            double ucbConstant = 50; 
+            int maxGames = 1000000; 
+            String targetStr = getOption(args, "-target"); 
+            if(targetStr != null) {
+                targetRate = Double.parseDouble(targetStr); 
+            }
+            String ucbStr = getOption(args, "-c"); 
+            if(ucbStr != null) {
+                ucbConstant = Double.parseDouble(ucbStr); 
+            }
+            String gamesStr = getOption(args, "-games"); 
+            if(gamesStr != null) {
+                maxGames = Integer.parseInt(gamesStr); 
+            }
+            Benchmark.exploration(targetRate, ucbConstant, maxGames); 
+        }
+
+        else if(args[0].equals("-sweep")) {
+            // hyperparameter sweep, one training configuration per thread (bounded by the number of cores by default)
+            String specFile = args[1]; 
+            String csvFile = args[2]; 
+            int numThreads = Runtime.getRuntime().availableProcessors(); 
+            if(args.length > 3) {
+                try {
+                    numThreads = Integer.parseInt(args[3]); 
+                } catch (NumberFormatException e) {
+                    numThreads = 0; 
+                }
+                if(numThreads < 1) {
+                    System.out.println("Invalid number of threads (must be a whole number of at least 1): " + args[3]); 
+                    System.exit(-1); 
+                }
+            }
+            SweepRunner sweep = new SweepRunner(numThreads); 
+            try {
+                sweep.loadSpec(specFile); 
+            } catch (FileNotFoundException e) {
+                System.out.println("File Not Found");
+                e.printStackTrace();
+                System.exit(-1); 
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage()); 
+                System.exit(-1); 
+            }
+            sweep.run(); 
+            sweep.displayStats(); 
+            sweep.saveResults(csvFile); 
+        }
+
         else if(args[0].equals("-p")) {
             // playing game 
             String p1QFile = args[1]; 
@@ -95,12 +216,14 @@ public class Driver {
                 // human is player 1
                 p1 = new HumanPlayer(1); 
                 p2 = new ComputerPlayer(-1, p2QFile, 0.95, 1.0, 0, false);     
+                setupSharing(args, (ComputerPlayer) p2, false); 
                 ((ComputerPlayer) p2).loadQFunction();          
             }
             else {
                 // computer is player 1
                 p1 = new ComputerPlayer(1, p1QFile, 0.95, 1.0, 0, false); 
                 p2 = new HumanPlayer(-1); 
+                setupSharing(args, (ComputerPlayer) p1, false); 
                 ((ComputerPlayer) p1).loadQFunction(); 
             }
             Game ticTacToe = new Game(p1, p2);
@@ -108,4 +231,71 @@ public class Driver {
             inScanner.close(); 
         }                
     }
+
+
+    /* Returns the argument following the given option flag, null if the option was not given */
+    public static String getOption(String[] args, String flag) {
+        for(int i = 0; i < args.length - 1; i++) {
+            if(args[i].equals(flag)) {
+                return args[i + 1]; 
+            }
+        }
+        return null; 
+    }
+
+
+    /* Returns a player to train: 
+        * learning with prioritized sweeping if "-ps <planningSteps>" was given 
+        * exploring with UCB if "-ucb <c>" was given (and with 1/n learning rates if "-countAlpha" was given) 
+        * on a shared Q table if "-shared" was given */
+    public static ComputerPlayer createLearner(String[] args, int symbol, String qFile, boolean isUsingDecay) {
+        ComputerPlayer learner; 
+        String planningSteps = getOption(args, "-ps"); 
+        if(planningSteps != null) {
+            learner = new PrioritizedSweepingPlayer(symbol, qFile, 0.95, 0.2, 0.3, isUsingDecay, Integer.parseInt(planningSteps)); 
+        }
+        else {
+            learner = new ComputerPlayer(symbol, qFile, 0.95, 0.2, 0.3, isUsingDecay); 
+        }
+        String ucbConstant = getOption(args, "-ucb"); 
+        if(ucbConstant != null) {
+            learner.useCountExploration(Double.parseDouble(ucbConstant), Arrays.asList(args).contains("-countAlpha")); 
+        }
+        setupSharing(args, learner, true); 
+        return learner; 
+    }
+
+
+    /* Attaches the player to the shared Q table in its qFile if "-shared" was given 
+     * Any number of processes can train (or play) on the same shared table at once
+     * Training creates missing tables, playing requires the table to exist (a mistyped path would give a random opponent) */
+    public static void setupSharing(String[] args, ComputerPlayer player, boolean isCreating) {
+        if(Arrays.asList(args).contains("-shared")) {
+            try {
+                player.attachSharedTable(isCreating); 
+            } catch (NoSuchFileException e) {
+                System.out.println("File Not Found: " + e.getFile());
+                System.exit(-1); 
+            } catch (IOException e) {
+                System.out.println("File Error");
+                e.printStackTrace();
+                System.exit(-1); 
+            }
+        }
+    }
+
+
+    /* Records the training games to the log given after "-rec" (if any) */
+    public static void setupRecording(String[] args, Game ticTacToe) {
+        String logFile = getOption(args, "-rec"); 
+        if(logFile != null) {
+            try {
+                ticTacToe.setRecorder(new TrajectoryRecorder(logFile)); 
+            } catch (IOException e) {
+                System.out.println("File Error");
+                e.printStackTrace();
+                System.exit(-1); 
+            }
+        }
+    }
 }
@@ -7,6 +7,8 @@ public class Game {
     private int p1Wins; 
     private int p2Wins; 
     private int numTies; 
+    private long trainStartTime; 
+    private TrajectoryRecorder recorder; // optional log of training games
 
     static int NUM_COLS = 3;
     static int NUM_ROWS = 3;
@@ -14,11 +16,27 @@ public class Game {
     public Game(Player player1, Player player2) throws InterruptedException {
         this.board = new int[NUM_ROWS][NUM_COLS];
         this.players = new Player[] {player1, player2};
-        this.boardState = ""; 
+        this.boardState = this.hashBoard(); 
         this.gamesPlayed = 0; 
         this.p1Wins = 0; 
         this.p2Wins = 0; 
         this.numTies = 0;  
+        this.trainStartTime = 0; 
+        this.recorder = null; 
+    }
+
+
+    /* Records every training game to the given trajectory log */
+    public void setRecorder(TrajectoryRecorder recorder) {
+        this.recorder = recorder; 
+    }
+
+
+    /* Flushes and closes the trajectory log (if recording) */
+    public void stopRecording() {
+        if(this.recorder != null) {
+            this.recorder.close(); 
+        }
     }
 
 
@@ -205,76 +223,123 @@ public class Game {
         * Player ties: Reward = 5 */
     public void train() {
         this.reset(); 
+        this.trainStartTime = System.nanoTime(); 
         // training loop (each iteration is a single game)
         while(true) {
-            int playerNum = 0; // index of current player 
-            int numTurns = 0;   
-            ComputerPlayer currentPlayer = (ComputerPlayer)this.players[playerNum];   
-
-            boolean keepPlaying = true;
-            while(keepPlaying) {
-                if(numTurns > 1) { 
-                    // update Q only after each player has made their first move 
-                    currentPlayer.setNextState(this.boardState);
-                    currentPlayer.updateQ(0.0); 
-                }
+            if(gamesPlayed % 1000000 == 0) {
+                System.out.println("Games Played: " + gamesPlayed);
+            }
+            this.trainGame(); 
+        }
+    }
 
-                // Current player makes a move 
-                currentPlayer.setCurrState(this.boardState); 
-                String action = currentPlayer.getAction(); 
-                this.updateBoard(action, currentPlayer.symbol); 
-                currentPlayer.setLastAction(action); 
-                
-                // Check for win 
-                // if game is over, give rewards and update each players Q table 
-                int winner = this.checkForWinner();
-                if(winner == 1) {
-                    // player 1 win
-                    ((ComputerPlayer) this.players[0]).updateQEnd(10.0); 
-                    ((ComputerPlayer) this.players[1]).updateQEnd(-10.0); 
-                    keepPlaying = false; 
-                    this.p1Wins++; 
-                    this.reset(); 
-                } 
-
-                else if(winner == 2) {
-                    //player 2 win
-                    ((ComputerPlayer) this.players[1]).updateQEnd(10.0);
-                    ((ComputerPlayer) this.players[0]).updateQEnd(-10.0);
-                    keepPlaying = false; 
-                    this.p2Wins++; 
-                    this.reset();                     
-                }
 
-                else if(winner == 0) {
-                    // tie
-                    ((ComputerPlayer) this.players[0]).updateQEnd(5.0); 
-                    ((ComputerPlayer) this.players[1]).updateQEnd(5.0);
-                    keepPlaying = false; 
-                    this.numTies++; 
-                    this.reset(); 
-                }
+    /* Plays a single training game between p1 and p2, updating their Q functions (see train) */
+    public void trainGame() {
+        int playerNum = 0; // index of current player 
+        int numTurns = 0;   
+        ComputerPlayer currentPlayer = (ComputerPlayer)this.players[playerNum];   
 
-                // swich players 
-                numTurns++; 
-                playerNum = playerNum ^ 1; 
-                currentPlayer = (ComputerPlayer)this.players[playerNum]; 
+        boolean keepPlaying = true;
+        while(keepPlaying) {
+            if(numTurns > 1) { 
+                // update Q only after each player has made their first move 
+                currentPlayer.setNextState(this.boardState);
+                currentPlayer.updateQ(0.0); 
             }
 
-            // decay learning rate and rate of exploration for each player
-            if(((ComputerPlayer) this.players[0]).isUsingDecay()) {
-                ((ComputerPlayer) this.players[0]).decayAlpha();
-                ((ComputerPlayer) this.players[0]).decayEpsilon();
+            // Current player makes a move 
+            currentPlayer.setCurrState(this.boardState); 
+            String action = currentPlayer.getAction(); 
+            if(this.recorder != null) {
+                this.recorder.recordMove(BoardCodec.encode(this.board), action); 
             }
-            if(((ComputerPlayer) this.players[1]).isUsingDecay()) {
-                ((ComputerPlayer) this.players[1]).decayAlpha();
-                ((ComputerPlayer) this.players[1]).decayEpsilon();
-            }                
+            this.updateBoard(action, currentPlayer.symbol); 
+            currentPlayer.setLastAction(action); 
             
-            if(gamesPlayed % 1000000 == 0) {
-                System.out.println("Games Played: " + gamesPlayed);
+            // Check for win 
+            // if game is over, give rewards and update each players Q table 
+            int winner = this.checkForWinner();
+            if(winner == 1) {
+                // player 1 win
+                ((ComputerPlayer) this.players[0]).updateQEnd(10.0); 
+                ((ComputerPlayer) this.players[1]).updateQEnd(-10.0); 
+                this.recordEpisode(10.0, -10.0); 
+                keepPlaying = false; 
+                this.p1Wins++; 
+                this.reset(); 
+            } 
+
+            else if(winner == 2) {
+                //player 2 win
+                ((ComputerPlayer) this.players[1]).updateQEnd(10.0);
+                ((ComputerPlayer) this.players[0]).updateQEnd(-10.0);
+                this.recordEpisode(-10.0, 10.0); 
+                keepPlaying = false; 
+                this.p2Wins++; 
+                this.reset();                     
+            }
+
+            else if(winner == 0) {
+                // tie
+                ((ComputerPlayer) this.players[0]).updateQEnd(5.0); 
+                ((ComputerPlayer) this.players[1]).updateQEnd(5.0);
+                this.recordEpisode(5.0, 5.0); 
+                keepPlaying = false; 
+                this.numTies++; 
+                this.reset(); 
+            }
+
+            // swich players 
+            numTurns++; 
+            playerNum = playerNum ^ 1; 
+            currentPlayer = (ComputerPlayer)this.players[playerNum]; 
+        }
+
+        // decay learning rate and rate of exploration for each player
+        if(((ComputerPlayer) this.players[0]).isUsingDecay()) {
+            ((ComputerPlayer) this.players[0]).decayAlpha();
+            ((ComputerPlayer) this.players[0]).decayEpsilon();
+        }
+        if(((ComputerPlayer) this.players[1]).isUsingDecay()) {
+            ((ComputerPlayer) this.players[1]).decayAlpha();
+            ((ComputerPlayer) this.players[1]).decayEpsilon();
+        }                
+
+        // prioritized sweeping players plan with their model after every real game 
+        for(Player player : this.players) {
+            if(player instanceof PrioritizedSweepingPlayer) {
+                ((PrioritizedSweepingPlayer) player).planningSweep(); 
             }
-            this.gamesPlayed++; 
+        }
+        this.gamesPlayed++; 
+    }
+
+
+    /* Plays a game between p1 and p2 without learning or displaying the board (used to evaluate Computer Players)
+     * Returns the winner (see checkForWinner) */
+    public int simulate() {
+        this.reset(); 
+        int playerNum = 0; // index of current player 
+        int winner = -1; 
+        while(winner == -1) {
+            ComputerPlayer currentPlayer = (ComputerPlayer)this.players[playerNum]; 
+            currentPlayer.setCurrState(this.boardState); 
+            String action = currentPlayer.getAction(); 
+            this.updateBoard(action, currentPlayer.symbol); 
+            currentPlayer.setLastAction(action); 
+            winner = this.checkForWinner(); 
+            playerNum = playerNum ^ 1; 
+        }
+        this.reset(); 
+        return winner; 
+    }
+
+
+    /* Ends the recorded episode with each players final reward (if recording) */
+    private void recordEpisode(double p1Reward, double p2Reward) {
+        if(this.recorder != null) {
+            this.recorder.endEpisode(p1Reward, p2Reward); 
         }
     }
 
@@ -317,5 +382,13 @@ public class Game {
         System.out.println("P1 States: " + ((ComputerPlayer)this.players[0]).getQTable().size()); 
         System.out.println("P2 States: "  +((ComputerPlayer)this.players[1]).getQTable().size()); 
         System.out.println();
+        if(this.trainStartTime > 0) {
+            double seconds = (System.nanoTime() - this.trainStartTime) / 1e9; 
+            System.out.println("Games/sec: " + Math.round(gamesPlayed / seconds)); 
+        }
+        if(this.recorder != null) {
+            System.out.println("Episodes Recorded: " + this.recorder.getEpisodesRecorded()); 
+        }
+        System.out.println();
     }
 }
\ No newline at end of file
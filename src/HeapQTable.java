@@ -0,0 +1,77 @@
+import java.util.HashMap;
+import java.util.Set;
+
+/* Q table private to one player, kept on the heap */
+public class HeapQTable implements QTable {
+    private HashMap<String, Double> qValues;
+    private int[] visitCounts; // indexed by pair code (see BoardCodec)
+
+    public HeapQTable() {
+        this.qValues = new HashMap<String, Double>();
+        this.visitCounts = new int[BoardCodec.NUM_PAIRS];
+    }
+
+
+    @Override
+    public boolean containsKey(String key) {
+        return this.qValues.containsKey(key);
+    }
+
+
+    @Override
+    public double get(String key) {
+        return this.qValues.get(key);
+    }
+
+
+    @Override
+    public double getOrDefault(String key, double defaultValue) {
+        return this.qValues.getOrDefault(key, defaultValue);
+    }
+
+
+    @Override
+    public void put(String key, double value) {
+        this.qValues.put(key, value);
+    }
+
+
+    @Override
+    public double update(String key, double alpha, double target) {
+        double prevQ = this.qValues.getOrDefault(key, 0.0);
+        double newQ = (alpha * target) + ((1-alpha)*prevQ);
+        this.qValues.put(key, newQ);
+        return newQ;
+    }
+
+
+    @Override
+    public int size() {
+        return this.qValues.size();
+    }
+
+
+    @Override
+    public Set<String> keySet() {
+        return this.qValues.keySet();
+    }
+
+
+    @Override
+    public int getVisitCount(int pair) {
+        return this.visitCounts[pair];
+    }
+
+
+    @Override
+    public void setVisitCount(int pair, int count) {
+        this.visitCounts[pair] = count;
+    }
+
+
+    @Override
+    public int addVisit(int pair) {
+        this.visitCounts[pair]++;
+        return this.visitCounts[pair];
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/* Q table kept off-heap in a memory-mapped file, shared by every process attached to the same file
+ * Values are updated with atomic compare-and-set on the mapping, so concurrent trainers never lose a whole update,
+ * and the file is always a complete table (it is the players persistent checkpoint)
+ * File layout (little endian):
+     * Header (64 bytes): int magic, int version, int numPairs, int unused, double alpha, double epsilon, long size
+     * Q values: NUM_PAIRS doubles by pair code (see BoardCodec), EMPTY if the pair has no value yet
+     * Visit counts: NUM_PAIRS ints by pair code */
+public class MappedQTable implements QTable {
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    static int MAGIC = 0x54545451; // "TTTQ"
+    static int VERSION = 1;
+    static int NUM_PAIRS = BoardCodec.NUM_PAIRS;
+    static int MAGIC_OFFSET = 0;
+    static int VERSION_OFFSET = 4;
+    static int NUM_PAIRS_OFFSET = 8;
+    static int ALPHA_OFFSET = 16;
+    static int EPSILON_OFFSET = 24;
+    static int SIZE_OFFSET = 32;
+    static int HEADER_SIZE = 64;
+    static int VALUES_OFFSET = HEADER_SIZE;
+    static int COUNTS_OFFSET = VALUES_OFFSET + (8 * NUM_PAIRS);
+    static int FILE_SIZE = COUNTS_OFFSET + (4 * NUM_PAIRS);
+    static long EMPTY = 0x7ff8dead0000beefL; // NaN bit pattern no Q value can have
+
+    // atomic access to the mapped longs/ints (offsets must be aligned to their size)
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /* Attaches to the table in mapFile
+     * If isCreating, a missing table is created (with the given alpha and epsilon), otherwise it must already exist */
+    public MappedQTable(String mapFile, double alpha, double epsilon, boolean isCreating) throws IOException {
+        if(isCreating) {
+            this.channel = FileChannel.open(Paths.get(mapFile), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        else {
+            this.channel = FileChannel.open(Paths.get(mapFile), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        // only one process at a time may check or initialize the file
+        FileLock lock = this.channel.lock();
+        try {
+            long size = this.channel.size();
+            if(size == 0 && !isCreating) {
+                // checked before mapping, which would grow the file to FILE_SIZE
+                throw new IOException("Shared Q table was never initialized: " + mapFile);
+            }
+            if(size != 0 && size != FILE_SIZE) {
+                throw new IOException("Not a shared Q table: " + mapFile);
+            }
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            int magic = (int)INTS.getVolatile(this.buffer, MAGIC_OFFSET);
+            if(magic == 0 && !isCreating) {
+                throw new IOException("Shared Q table was never initialized: " + mapFile);
+            }
+            else if(magic == 0) {
+                // new file (or one whose creator crashed before finishing)
+                this.initialize(alpha, epsilon);
+            }
+            else if(magic != MAGIC) {
+                throw new IOException("Not a shared Q table: " + mapFile);
+            }
+            else if((int)INTS.getVolatile(this.buffer, VERSION_OFFSET) != VERSION || (int)INTS.getVolatile(this.buffer, NUM_PAIRS_OFFSET) != NUM_PAIRS) {
+                throw new IOException("Unsupported shared Q table version: " + mapFile);
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+
+    /* Writes an empty table, the magic number goes last so a half written file is never mistaken for a table */
+    private void initialize(double alpha, double epsilon) {
+        for(int pair = 0; pair < NUM_PAIRS; pair++) {
+            LONGS.setVolatile(this.buffer, valueOffset(pair), EMPTY);
+            INTS.setVolatile(this.buffer, countOffset(pair), 0);
+        }
+        INTS.setVolatile(this.buffer, VERSION_OFFSET, VERSION);
+        INTS.setVolatile(this.buffer, NUM_PAIRS_OFFSET, NUM_PAIRS);
+        LONGS.setVolatile(this.buffer, ALPHA_OFFSET, Double.doubleToRawLongBits(alpha));
+        LONGS.setVolatile(this.buffer, EPSILON_OFFSET, Double.doubleToRawLongBits(epsilon));
+        LONGS.setVolatile(this.buffer, SIZE_OFFSET, 0L);
+        this.buffer.force();
+        INTS.setVolatile(this.buffer, MAGIC_OFFSET, MAGIC);
+        this.buffer.force();
+    }
+
+
+    @Override
+    public boolean containsKey(String key) {
+        return this.getBits(BoardCodec.encodePair(key)) != EMPTY;
+    }
+
+
+    @Override
+    public double get(String key) {
+        return Double.longBitsToDouble(this.getBits(BoardCodec.encodePair(key)));
+    }
+
+
+    @Override
+    public double getOrDefault(String key, double defaultValue) {
+        long bits = this.getBits(BoardCodec.encodePair(key));
+        if(bits == EMPTY) {
+            return defaultValue;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+
+    @Override
+    public void put(String key, double value) {
+        long prevBits = (long)LONGS.getAndSet(this.buffer, valueOffset(BoardCodec.encodePair(key)), Double.doubleToRawLongBits(value));
+        if(prevBits == EMPTY) {
+            LONGS.getAndAdd(this.buffer, SIZE_OFFSET, 1L);
+        }
+    }
+
+
+    /* Retries until no other process changed the value between the read and the write */
+    @Override
+    public double update(String key, double alpha, double target) {
+        int offset = valueOffset(BoardCodec.encodePair(key));
+        while(true) {
+            long prevBits = (long)LONGS.getVolatile(this.buffer, offset);
+            double prevQ = 0.0;
+            if(prevBits != EMPTY) {
+                prevQ = Double.longBitsToDouble(prevBits);
+            }
+            double newQ = (alpha * target) + ((1-alpha)*prevQ);
+            if(LONGS.compareAndSet(this.buffer, offset, prevBits, Double.doubleToRawLongBits(newQ))) {
+                if(prevBits == EMPTY) {
+                    LONGS.getAndAdd(this.buffer, SIZE_OFFSET, 1L);
+                }
+                return newQ;
+            }
+        }
+    }
+
+
+    @Override
+    public int size() {
+        return (int)(long)LONGS.getVolatile(this.buffer, SIZE_OFFSET);
+    }
+
+
+    @Override
+    public Set<String> keySet() {
+        HashSet<String> keys = new HashSet<String>();
+        for(int pair = 0; pair < NUM_PAIRS; pair++) {
+            if(this.getBits(pair) != EMPTY) {
+                keys.add(BoardCodec.decodePair(pair));
+            }
+        }
+        return keys;
+    }
+
+
+    @Override
+    public int getVisitCount(int pair) {
+        return (int)INTS.getVolatile(this.buffer, countOffset(pair));
+    }
+
+
+    @Override
+    public void setVisitCount(int pair, int count) {
+        INTS.setVolatile(this.buffer, countOffset(pair), count);
+    }
+
+
+    @Override
+    public int addVisit(int pair) {
+        return (int)INTS.getAndAdd(this.buffer, countOffset(pair), 1) + 1;
+    }
+
+
+    /* Returns the learning rate shared by the attached processes */
+    public double getAlpha() {
+        return Double.longBitsToDouble((long)LONGS.getVolatile(this.buffer, ALPHA_OFFSET));
+    }
+
+
+    /* Returns the rate of exploration shared by the attached processes */
+    public double getEpsilon() {
+        return Double.longBitsToDouble((long)LONGS.getVolatile(this.buffer, EPSILON_OFFSET));
+    }
+
+
+    /* Decays the shared learning rate (while above minValue) and returns it */
+    public double decayAlpha(double rate, double minValue) {
+        return this.decay(ALPHA_OFFSET, rate, minValue);
+    }
+
+
+    /* Decays the shared rate of exploration (while above minValue) and returns it */
+    public double decayEpsilon(double rate, double minValue) {
+        return this.decay(EPSILON_OFFSET, rate, minValue);
+    }
+
+
+    /* Flushes the table to disk */
+    public void force() {
+        this.buffer.force();
+    }
+
+
+    private double decay(int offset, double rate, double minValue) {
+        while(true) {
+            long prevBits = (long)LONGS.getVolatile(this.buffer, offset);
+            double prevValue = Double.longBitsToDouble(prevBits);
+            if(prevValue <= minValue) {
+                return prevValue;
+            }
+            double newValue = prevValue * rate;
+            if(LONGS.compareAndSet(this.buffer, offset, prevBits, Double.doubleToRawLongBits(newValue))) {
+                return newValue;
+            }
+        }
+    }
+
+
+    private long getBits(int pair) {
+        return (long)LONGS.getVolatile(this.buffer, valueOffset(pair));
+    }
+
+
+    private static int valueOffset(int pair) {
+        return VALUES_OFFSET + (8 * pair);
+    }
+
+
+    private static int countOffset(int pair) {
+        return COUNTS_OFFSET + (4 * pair);
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/* Solves ticTakToe with minimax so trained players can be scored against perfect play
+ * Every state reachable from the empty board is solved once, up front */
+public class OptimalPolicy {
+    static int NUM_CELLS = BoardCodec.NUM_CELLS;
+    static int UNSOLVED = -2;
+
+    // value of each state for the player to move (1 = win, 0 = tie, -1 = loss), UNSOLVED if unreachable
+    private static final int[] VALUES = new int[BoardCodec.NUM_STATES];
+    // bitmask of the optimal action codes in each reachable in-progress state
+    private static final int[] OPTIMAL_ACTIONS = new int[BoardCodec.NUM_STATES];
+    // reachable in-progress states, by which player is to move (0 = player1, 1 = player2)
+    private static final ArrayList<ArrayList<Integer>> DECISION_STATES = new ArrayList<>();
+
+    static {
+        Arrays.fill(VALUES, UNSOLVED);
+        DECISION_STATES.add(new ArrayList<Integer>());
+        DECISION_STATES.add(new ArrayList<Integer>());
+        solve(new int[NUM_CELLS], 1);
+    }
+
+
+    /* Returns true if the action (code) is optimal in the state (code) */
+    public static boolean isOptimal(int stateCode, int actionCode) {
+        return (OPTIMAL_ACTIONS[stateCode] & (1 << actionCode)) != 0;
+    }
+
+
+    /* Returns the fraction of a players decision states in which its greedy move is optimal
+     * Ties between greedy moves count for the fraction of them that are optimal (ties are broken randomly),
+     * states the player has never learned anything about count as not optimal */
+    public static double optimalMoveRate(ComputerPlayer player) {
+        ArrayList<Integer> states = DECISION_STATES.get(player.getSymbol() == 1 ? 0 : 1);
+        double numOptimal = 0;
+        for(int stateCode : states) {
+            ArrayList<String> greedyActions = player.getGreedyActions(BoardCodec.decode(stateCode));
+            int numGreedyOptimal = 0;
+            for(String a : greedyActions) {
+                if(isOptimal(stateCode, BoardCodec.encodeAction(a))) {
+                    numGreedyOptimal++;
+                }
+            }
+            if(greedyActions.size() > 0) {
+                numOptimal += (double)numGreedyOptimal / greedyActions.size();
+            }
+        }
+        return numOptimal / states.size();
+    }
+
+
+    /* Solves the state for the player to move (symbol) and returns its value */
+    private static int solve(int[] cells, int symbol) {
+        int code = BoardCodec.encode(cells);
+        if(VALUES[code] != UNSOLVED) {
+            return VALUES[code];
+        }
+        int winner = winner(cells);
+        if(winner != 0) {
+            // the previous move won, so the player to move has lost
+            VALUES[code] = -1;
+            return -1;
+        }
+
+        int bestValue = UNSOLVED;
+        int bestActions = 0;
+        for(int a = 0; a < NUM_CELLS; a++) {
+            if(cells[a] == 0) {
+                cells[a] = symbol;
+                int value = -solve(cells, -symbol);
+                cells[a] = 0;
+                if(value > bestValue) {
+                    bestValue = value;
+                    bestActions = 1 << a;
+                }
+                else if(value == bestValue) {
+                    bestActions |= 1 << a;
+                }
+            }
+        }
+        if(bestValue == UNSOLVED) {
+            // board is full: tie
+            VALUES[code] = 0;
+            return 0;
+        }
+        VALUES[code] = bestValue;
+        OPTIMAL_ACTIONS[code] = bestActions;
+        DECISION_STATES.get(symbol == 1 ? 0 : 1).add(code);
+        return bestValue;
+    }
+
+
+    /* Returns the symbol of the player with three in a row, 0 if none */
+    private static int winner(int[] cells) {
+        int[][] lines = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, {0, 4, 8}, {2, 4, 6}};
+        for(int[] line : lines) {
+            int sum = cells[line[0]] + cells[line[1]] + cells[line[2]];
+            if(sum == 3 || sum == -3) {
+                return sum / 3;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/* Represents an AI ticTakToe player learning with prioritized sweeping
+ * Real moves update Q like ComputerPlayer and also build a model of the observed transitions:
+     * (state, action) -> next states (with counts) and average reward
+ * After every game a fixed budget of planning backups is spent on the (state, action) pairs
+ * whose Q value is furthest from the model (|ΔQ|), working backwards through their predecessors,
+ * so terminal rewards reach the opening states in far fewer games */
+public class PrioritizedSweepingPlayer extends ComputerPlayer {
+    private int planningSteps; // planning backups after each game
+    // model, indexed by pair code (see BoardCodec)
+    private int[] visits;
+    private double[] rewardSums;
+    private int[][] nextStates; // state codes observed after each pair
+    private int[][] nextCounts; // number of times each of those next states was observed
+    private int[] numNextStates;
+    private int[][] predecessors; // pairs observed to lead to each state code
+    private int[] numPredecessors;
+    private SweepQueue queue; // pairs waiting for a planning backup, ranked by |ΔQ|
+    private double[] maxQCache; // maxa Q(s, a) of each state code, valid while isMaxQCached
+    private boolean[] isMaxQCached;
+
+    static int NUM_PAIRS = BoardCodec.NUM_PAIRS;
+    static double PRIORITY_THRESHOLD = 0.0001; // smallest |ΔQ| worth a backup
+
+    public PrioritizedSweepingPlayer(int symbol, String qFile, double gamma, double alpha, double epsilon, boolean isUsingDecay, int planningSteps) {
+        super(symbol, qFile, gamma, alpha, epsilon, isUsingDecay);
+        this.planningSteps = planningSteps;
+        this.visits = new int[NUM_PAIRS];
+        this.rewardSums = new double[NUM_PAIRS];
+        this.nextStates = new int[NUM_PAIRS][];
+        this.nextCounts = new int[NUM_PAIRS][];
+        this.numNextStates = new int[NUM_PAIRS];
+        this.predecessors = new int[BoardCodec.NUM_STATES][];
+        this.numPredecessors = new int[BoardCodec.NUM_STATES];
+        this.queue = new SweepQueue(NUM_PAIRS);
+        this.maxQCache = new double[BoardCodec.NUM_STATES];
+        this.isMaxQCached = new boolean[BoardCodec.NUM_STATES];
+    }
+
+
+    /* Updates Q for the observation (currentState, lastAction) -> (nextState) and adds it to the model */
+    @Override
+    public void updateQ(double reward) {
+        int pair = BoardCodec.encodePair(this.getCurrState(), this.getLastAction());
+        this.recordTransition(pair, reward, BoardCodec.encode(this.getNextState()));
+        double prevQ = this.getQ(pair);
+        super.updateQ(reward);
+        this.isMaxQCached[pair / BoardCodec.NUM_CELLS] = false;
+        this.queueChange(pair, prevQ);
+    }
+
+
+    /* Updates Q for the last move of the game and adds it to the model (as a transition with no next state) */
+    @Override
+    public void updateQEnd(double reward) {
+        int pair = BoardCodec.encodePair(this.getCurrState(), this.getLastAction());
+        this.recordTransition(pair, reward, -1);
+        double prevQ = this.getQ(pair);
+        super.updateQEnd(reward);
+        this.isMaxQCached[pair / BoardCodec.NUM_CELLS] = false;
+        this.queueChange(pair, prevQ);
+    }
+
+
+    /* Runs up to planningSteps backups, highest priority first
+     * Each backup sets Q to the models expected return:
+        * Q(s, a) = avg r(s, a) + γ Σ P(s'|s, a) maxa' Q(s', a') */
+    public void planningSweep() {
+        for(int step = 0; step < this.planningSteps && !this.queue.isEmpty(); step++) {
+            int pair = this.queue.pop();
+            double prevQ = this.getQ(pair);
+            this.getQTable().put(BoardCodec.decodePair(pair), this.expectedReturn(pair));
+            this.isMaxQCached[pair / BoardCodec.NUM_CELLS] = false;
+            this.queueChange(pair, prevQ);
+        }
+    }
+
+
+    /* Reads the Q table from the qFile, clearing any cached max Q values */
+    @Override
+    public void loadQFunction() {
+        super.loadQFunction();
+        Arrays.fill(this.isMaxQCached, false);
+    }
+
+
+    /* Returns the number of bytes used by the model and its queue */
+    public long getModelBytes() {
+        long bytes = 0;
+        bytes += (long)NUM_PAIRS * (4 + 8 + 4); // visits, rewardSums, numNextStates
+        bytes += (long)NUM_PAIRS * 2 * 8; // nextStates and nextCounts row references
+        bytes += (long)BoardCodec.NUM_STATES * (8 + 4 + 8 + 1); // predecessors row references, numPredecessors, max Q cache
+        for(int pair = 0; pair < NUM_PAIRS; pair++) {
+            if(this.nextStates[pair] != null) {
+                bytes += 2 * (16 + (4L * this.nextStates[pair].length));
+            }
+        }
+        for(int state = 0; state < BoardCodec.NUM_STATES; state++) {
+            if(this.predecessors[state] != null) {
+                bytes += 16 + (4L * this.predecessors[state].length);
+            }
+        }
+        return bytes + this.queue.getBytes();
+    }
+
+
+    /* Queues the pair and, if its Q value moved, the pairs leading into its state */
+    private void queueChange(int pair, double prevQ) {
+        this.queuePair(pair);
+        if(Math.abs(this.getQ(pair) - prevQ) > PRIORITY_THRESHOLD) {
+            int state = pair / BoardCodec.NUM_CELLS;
+            for(int i = 0; i < this.numPredecessors[state]; i++) {
+                this.queuePair(this.predecessors[state][i]);
+            }
+        }
+    }
+
+
+    /* Queues the pair if its Q value is out of date with the model */
+    private void queuePair(int pair) {
+        double priority = Math.abs(this.expectedReturn(pair) - this.getQ(pair));
+        if(priority > PRIORITY_THRESHOLD) {
+            this.queue.push(pair, priority);
+        }
+    }
+
+
+    /* Returns the expected return of the pair under the model */
+    private double expectedReturn(int pair) {
+        double visitCount = this.visits[pair];
+        double expected = this.rewardSums[pair] / visitCount;
+        for(int i = 0; i < this.numNextStates[pair]; i++) {
+            double p = this.nextCounts[pair][i] / visitCount;
+            expected += p * this.getGamma() * this.getMaxQ(this.nextStates[pair][i]);
+        }
+        return expected;
+    }
+
+
+    /* Adds the observation (pair, reward) -> (next state code, -1 if the game ended) to the model */
+    private void recordTransition(int pair, double reward, int nextState) {
+        this.visits[pair]++;
+        this.rewardSums[pair] += reward;
+        if(nextState < 0) {
+            return;
+        }
+        for(int i = 0; i < this.numNextStates[pair]; i++) {
+            if(this.nextStates[pair][i] == nextState) {
+                this.nextCounts[pair][i]++;
+                return;
+            }
+        }
+        // first time this transition is seen
+        int n = this.numNextStates[pair];
+        if(this.nextStates[pair] == null) {
+            this.nextStates[pair] = new int[2];
+            this.nextCounts[pair] = new int[2];
+        }
+        else if(n == this.nextStates[pair].length) {
+            this.nextStates[pair] = Arrays.copyOf(this.nextStates[pair], 2 * n);
+            this.nextCounts[pair] = Arrays.copyOf(this.nextCounts[pair], 2 * n);
+        }
+        this.nextStates[pair][n] = nextState;
+        this.nextCounts[pair][n] = 1;
+        this.numNextStates[pair]++;
+
+        int m = this.numPredecessors[nextState];
+        if(this.predecessors[nextState] == null) {
+            this.predecessors[nextState] = new int[2];
+        }
+        else if(m == this.predecessors[nextState].length) {
+            this.predecessors[nextState] = Arrays.copyOf(this.predecessors[nextState], 2 * m);
+        }
+        this.predecessors[nextState][m] = pair;
+        this.numPredecessors[nextState]++;
+    }
+
+
+    /* Returns maxa Q(s, a) of a state code (see ComputerPlayer.getMaxQ), cached until one of its Q values changes
+     * Not cached for shared tables since other processes change them too */
+    private double getMaxQ(int state) {
+        if(!this.isMaxQCached[state] || this.isShared()) {
+            this.maxQCache[state] = this.getMaxQ(BoardCodec.decode(state));
+            this.isMaxQCached[state] = true;
+        }
+        return this.maxQCache[state];
+    }
+
+
+    private double getQ(int pair) {
+        return this.getQTable().getOrDefault(BoardCodec.decodePair(pair), 0.0);
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.Set;
+
+/* Storage for a players Q function
+ * key = state + ":" + action (see ComputerPlayer), value = long term discounted reward
+ * Also holds the number of updates (visits) of each (state, action), by pair code (see BoardCodec) */
+public interface QTable {
+
+    /* Returns true if the key has a Q value */
+    boolean containsKey(String key);
+
+    /* Returns the Q value of the key (the key must have one) */
+    double get(String key);
+
+    /* Returns the Q value of the key, or defaultValue if it has none */
+    double getOrDefault(String key, double defaultValue);
+
+    /* Sets the Q value of the key */
+    void put(String key, double value);
+
+    /* Moves the Q value of the key towards target as one step: Q = α * target + (1-α) * Q
+     * Keys without a value start at zero, returns the new Q value */
+    double update(String key, double alpha, double target);
+
+    /* Returns the number of keys with a Q value */
+    int size();
+
+    /* Returns the keys with a Q value */
+    Set<String> keySet();
+
+    /* Returns the number of visits of the pair */
+    int getVisitCount(int pair);
+
+    /* Sets the number of visits of the pair */
+    void setVisitCount(int pair, int count);
+
+    /* Counts a visit to the pair and returns its new visit count */
+    int addVisit(int pair);
+}
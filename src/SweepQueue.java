@@ -0,0 +1,103 @@
+/* Max priority queue of integer items in [0, capacity), used by prioritized sweeping
+ * Binary heap over primitive arrays, each item is queued at most once (pushing a queued item raises its priority) */
+public class SweepQueue {
+    private int[] heap; // items, highest priority first
+    private double[] priorities; // priority of each item
+    private int[] positions; // index of each item in the heap, -1 if not queued
+    private int size;
+
+    public SweepQueue(int capacity) {
+        this.heap = new int[capacity];
+        this.priorities = new double[capacity];
+        this.positions = new int[capacity];
+        this.size = 0;
+        for(int i = 0; i < capacity; i++) {
+            this.positions[i] = -1;
+        }
+    }
+
+
+    public int size() {
+        return this.size;
+    }
+
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+
+    /* Returns the number of bytes used by the queues arrays */
+    public long getBytes() {
+        return (long)this.heap.length * (4 + 8 + 4);
+    }
+
+
+    /* Queues the item, or raises its priority if it is already queued with a lower one */
+    public void push(int item, double priority) {
+        int position = this.positions[item];
+        if(position == -1) {
+            this.heap[this.size] = item;
+            this.positions[item] = this.size;
+            this.priorities[item] = priority;
+            this.size++;
+            this.siftUp(this.size - 1);
+        }
+        else if(priority > this.priorities[item]) {
+            this.priorities[item] = priority;
+            this.siftUp(position);
+        }
+    }
+
+
+    /* Removes and returns the item with the highest priority */
+    public int pop() {
+        int top = this.heap[0];
+        this.size--;
+        this.positions[top] = -1;
+        if(this.size > 0) {
+            this.heap[0] = this.heap[this.size];
+            this.positions[this.heap[0]] = 0;
+            this.siftDown(0);
+        }
+        return top;
+    }
+
+
+    private void siftUp(int position) {
+        int item = this.heap[position];
+        while(position > 0) {
+            int parent = (position - 1) / 2;
+            if(this.priorities[this.heap[parent]] >= this.priorities[item]) {
+                break;
+            }
+            this.heap[position] = this.heap[parent];
+            this.positions[this.heap[position]] = position;
+            position = parent;
+        }
+        this.heap[position] = item;
+        this.positions[item] = position;
+    }
+
+
+    private void siftDown(int position) {
+        int item = this.heap[position];
+        while(true) {
+            int child = (2 * position) + 1;
+            if(child >= this.size) {
+                break;
+            }
+            if(child + 1 < this.size && this.priorities[this.heap[child + 1]] > this.priorities[this.heap[child]]) {
+                child++;
+            }
+            if(this.priorities[this.heap[child]] <= this.priorities[item]) {
+                break;
+            }
+            this.heap[position] = this.heap[child];
+            this.positions[this.heap[position]] = position;
+            position = child;
+        }
+        this.heap[position] = item;
+        this.positions[item] = position;
+    }
+}
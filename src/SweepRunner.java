@@ -0,0 +1,229 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/* Runs a hyperparameter sweep: independent training configurations (see SweepTrial), many at once on a bounded thread pool
+ * Spec file, one setting per line ("#" starts a comment):
+     * mode grid|random                                 grid: every combination of the values, random: samples random configurations
+     * gamma|alpha|epsilon|alphaDecay|epsilonDecay <v>... values to choose from, or (random mode) a range min:max
+     * games <n>                                        training games per configuration
+     * target <rate>                                    optimal move rate both players must reach (see OptimalPolicy)
+     * evalInterval <n>                                 games between optimal move rate checks
+     * samples <n>, seed <n>                            random mode only
+ * Hyperparameters left out keep the Driver defaults */
+public class SweepRunner {
+    private ArrayList<SweepTrial> trials;
+    private ArrayList<SweepTrial> finished; // trials that ran without failing
+    private int numThreads;
+    private double sweepSeconds;
+
+    static String[] PARAMETERS = {"gamma", "alpha", "epsilon", "alphaDecay", "epsilonDecay"};
+    static String[] DEFAULTS = {"0.95", "0.2", "0.3", Double.toString(ComputerPlayer.ALPHA_DECAY_RATE), Double.toString(ComputerPlayer.EPSILON_DECAY_RATE)};
+
+    public SweepRunner(int numThreads) {
+        this.trials = new ArrayList<SweepTrial>();
+        this.finished = new ArrayList<SweepTrial>();
+        this.numThreads = numThreads;
+        this.sweepSeconds = 0;
+    }
+
+
+    /* Reads the spec file and creates its trials */
+    public void loadSpec(String specFile) throws FileNotFoundException {
+        HashMap<String, String[]> settings = new HashMap<String, String[]>();
+        for(int i = 0; i < PARAMETERS.length; i++) {
+            settings.put(PARAMETERS[i], new String[] {DEFAULTS[i]});
+        }
+        settings.put("mode", new String[] {"grid"});
+        settings.put("games", new String[] {"200000"});
+        settings.put("target", new String[] {"0.95"});
+        settings.put("evalInterval", new String[] {"5000"});
+        settings.put("samples", new String[] {"20"});
+        settings.put("seed", new String[] {"0"});
+
+        Scanner myScanner = new Scanner(new File(specFile));
+        while(myScanner.hasNextLine()) {
+            String line = myScanner.nextLine().split("#")[0].trim();
+            if(line.isEmpty()) {
+                continue;
+            }
+            String[] lineList = line.split("\\s+");
+            if(!settings.containsKey(lineList[0]) || lineList.length < 2) {
+                myScanner.close();
+                throw new IllegalArgumentException("Invalid sweep setting: " + line);
+            }
+            String[] values = new String[lineList.length - 1];
+            System.arraycopy(lineList, 1, values, 0, values.length);
+            settings.put(lineList[0], values);
+        }
+        myScanner.close();
+
+        int numGames = parseCount(settings, "games");
+        double targetRate = parseNumber("target", settings.get("target")[0]);
+        int evalInterval = parseCount(settings, "evalInterval");
+        String mode = settings.get("mode")[0];
+        if(mode.equals("grid")) {
+            // every combination, counting through the value indices like an odometer
+            int[] indices = new int[PARAMETERS.length];
+            boolean isDone = false;
+            while(!isDone) {
+                double[] config = new double[PARAMETERS.length];
+                for(int i = 0; i < PARAMETERS.length; i++) {
+                    String value = settings.get(PARAMETERS[i])[indices[i]];
+                    if(value.contains(":")) {
+                        throw new IllegalArgumentException("Ranges are only allowed in random mode: " + PARAMETERS[i] + " " + value);
+                    }
+                    config[i] = parseNumber(PARAMETERS[i], value);
+                }
+                this.addTrial(config, numGames, targetRate, evalInterval);
+                isDone = true;
+                for(int i = PARAMETERS.length - 1; i >= 0 && isDone; i--) {
+                    indices[i]++;
+                    if(indices[i] < settings.get(PARAMETERS[i]).length) {
+                        isDone = false;
+                    }
+                    else {
+                        indices[i] = 0;
+                    }
+                }
+            }
+        }
+        else if(mode.equals("random")) {
+            Random rand = new Random(Long.parseLong(settings.get("seed")[0]));
+            int numSamples = parseCount(settings, "samples");
+            for(int sample = 0; sample < numSamples; sample++) {
+                double[] config = new double[PARAMETERS.length];
+                for(int i = 0; i < PARAMETERS.length; i++) {
+                    String[] values = settings.get(PARAMETERS[i]);
+                    String value = values[rand.nextInt(values.length)];
+                    if(value.contains(":")) {
+                        // uniform in the range min:max
+                        String[] range = value.split(":", -1);
+                        if(range.length != 2 || range[0].isEmpty() || range[1].isEmpty()) {
+                            throw new IllegalArgumentException("Invalid range for " + PARAMETERS[i] + " (expected min:max): " + value);
+                        }
+                        double min = parseNumber(PARAMETERS[i], range[0]);
+                        double max = parseNumber(PARAMETERS[i], range[1]);
+                        config[i] = min + (rand.nextDouble() * (max - min));
+                    }
+                    else {
+                        config[i] = parseNumber(PARAMETERS[i], value);
+                    }
+                }
+                this.addTrial(config, numGames, targetRate, evalInterval);
+            }
+        }
+        else {
+            throw new IllegalArgumentException("Invalid sweep mode: " + mode);
+        }
+    }
+
+
+    /* Returns the settings value as a whole number of at least 1 */
+    private static int parseCount(HashMap<String, String[]> settings, String name) {
+        String value = settings.get(name)[0];
+        int count;
+        try {
+            count = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + " (expected a whole number): " + value);
+        }
+        if(count < 1) {
+            throw new IllegalArgumentException("Invalid value for " + name + " (must be at least 1): " + value);
+        }
+        return count;
+    }
+
+
+    private static double parseNumber(String name, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+
+    private void addTrial(double[] config, int numGames, double targetRate, int evalInterval) {
+        this.trials.add(new SweepTrial(config[0], config[1], config[2], config[3], config[4], numGames, targetRate, evalInterval));
+    }
+
+
+    /* Runs every trial, numThreads at a time, displaying each as it finishes
+     * A trial that fails is reported and left out of the results, the rest keep running */
+    public void run() throws InterruptedException {
+        System.out.println("Running " + this.trials.size() + " configurations on " + this.numThreads + " threads");
+        long startTime = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+        CompletionService<SweepTrial> completed = new ExecutorCompletionService<SweepTrial>(pool);
+        HashMap<Future<SweepTrial>, SweepTrial> submitted = new HashMap<Future<SweepTrial>, SweepTrial>();
+        for(SweepTrial trial : this.trials) {
+            submitted.put(completed.submit(trial), trial);
+        }
+        try {
+            for(int i = 1; i <= this.trials.size(); i++) {
+                Future<SweepTrial> result = completed.take();
+                SweepTrial trial = submitted.get(result);
+                try {
+                    result.get();
+                    this.finished.add(trial);
+                    System.out.println("Finished " + i + "/" + this.trials.size() + ": " + trial.describe() +
+                                       " (" + Math.round(trial.getGamesPerSec()) + " games/sec)");
+                } catch (ExecutionException e) {
+                    System.out.println("Failed " + i + "/" + this.trials.size() + ": " + trial.describe());
+                    e.getCause().printStackTrace();
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        this.sweepSeconds = (System.nanoTime() - startTime) / 1e9;
+    }
+
+
+    /* Writes the finished trials results to a CSV file, best first (see SweepTrial.compareTo) */
+    public void saveResults(String csvFile) {
+        ArrayList<SweepTrial> ranked = new ArrayList<SweepTrial>(this.finished);
+        Collections.sort(ranked);
+        try {
+            FileWriter myWriter = new FileWriter(csvFile);
+            myWriter.write("rank," + SweepTrial.CSV_HEADER + "\n");
+            for(int i = 0; i < ranked.size(); i++) {
+                myWriter.write((i + 1) + "," + ranked.get(i).toCsvRow() + "\n");
+            }
+            myWriter.close();
+        } catch (IOException e) {
+            System.out.println("File Error");
+            e.printStackTrace();
+        }
+    }
+
+
+    /* Displays the overall throughput of the sweep */
+    public void displayStats() {
+        long totalGames = 0;
+        for(SweepTrial trial : this.finished) {
+            totalGames += trial.getNumGames();
+        }
+        System.out.println();
+        System.out.println("Configurations: " + this.trials.size());
+        if(this.finished.size() < this.trials.size()) {
+            System.out.println("Failed Configurations: " + (this.trials.size() - this.finished.size()));
+        }
+        System.out.println("Sweep Time: " + Math.round(this.sweepSeconds * 100) / 100.0 + "s");
+        System.out.println("Total Games/sec: " + Math.round(totalGames / this.sweepSeconds));
+        System.out.println();
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.concurrent.Callable;
+
+/* One configuration of a hyperparameter sweep (see SweepRunner)
+ * Trains two Computer Players from empty Q tables against eachother for a budget of games,
+ * then scores them with greedy play (epsilon = 0) */
+public class SweepTrial implements Callable<SweepTrial>, Comparable<SweepTrial> {
+    // configuration
+    private double gamma;
+    private double alpha;
+    private double epsilon;
+    private double alphaDecayRate;
+    private double epsilonDecayRate;
+    private int numGames;
+    private double targetRate;
+    private int evalInterval;
+    // results
+    private double gamesPerSec;
+    private int gamesToTarget; // -1 if the target was not reached
+    private double p1OptimalRate;
+    private double p2OptimalRate;
+    private double p1WinRate; // greedy p1 against a random p2
+    private double p1TieRate;
+    private double p2WinRate; // greedy p2 against a random p1
+    private double p2TieRate;
+    private double selfTieRate; // greedy p1 against greedy p2
+
+    static int EVAL_GAMES = 1000; // games per greedy evaluation matchup
+    static String CSV_HEADER = "gamma,alpha,epsilon,alphaDecay,epsilonDecay,games,gamesPerSec,gamesToTarget," +
+                               "p1OptimalRate,p2OptimalRate,p1WinRate,p1TieRate,p2WinRate,p2TieRate,selfPlayTieRate";
+
+    public SweepTrial(double gamma, double alpha, double epsilon, double alphaDecayRate, double epsilonDecayRate, int numGames, double targetRate, int evalInterval) {
+        this.gamma = gamma;
+        this.alpha = alpha;
+        this.epsilon = epsilon;
+        this.alphaDecayRate = alphaDecayRate;
+        this.epsilonDecayRate = epsilonDecayRate;
+        this.numGames = numGames;
+        this.targetRate = targetRate;
+        this.evalInterval = evalInterval;
+        this.gamesToTarget = -1;
+    }
+
+
+    /* Trains and evaluates the configuration, returns this trial with its results filled in */
+    @Override
+    public SweepTrial call() throws InterruptedException {
+        ComputerPlayer p1 = new ComputerPlayer(1, "", this.gamma, this.alpha, this.epsilon, true);
+        ComputerPlayer p2 = new ComputerPlayer(-1, "", this.gamma, this.alpha, this.epsilon, true);
+        p1.setDecayRates(this.alphaDecayRate, this.epsilonDecayRate);
+        p2.setDecayRates(this.alphaDecayRate, this.epsilonDecayRate);
+
+        // train to the target, then spend the rest of the budget
+        TrainingRun run = new TrainingRun(p1, p2, this.evalInterval);
+        this.gamesToTarget = run.trainToTarget(this.targetRate, this.numGames);
+        run.trainTo(this.numGames);
+        this.gamesPerSec = run.getGamesPlayed() / (run.getTrainNanos() / 1e9);
+        this.p1OptimalRate = run.getP1OptimalRate();
+        this.p2OptimalRate = run.getP2OptimalRate();
+
+        // greedy play against random players and against eachother
+        p1.setEpsilon(0);
+        p2.setEpsilon(0);
+        ComputerPlayer random1 = new ComputerPlayer(1, "", this.gamma, 1.0, 1.0, false);
+        ComputerPlayer random2 = new ComputerPlayer(-1, "", this.gamma, 1.0, 1.0, false);
+        int[] asP1 = evaluate(new Game(p1, random2));
+        int[] asP2 = evaluate(new Game(random1, p2));
+        int[] selfPlay = evaluate(new Game(p1, p2));
+        this.p1WinRate = (double)asP1[1] / EVAL_GAMES;
+        this.p1TieRate = (double)asP1[0] / EVAL_GAMES;
+        this.p2WinRate = (double)asP2[2] / EVAL_GAMES;
+        this.p2TieRate = (double)asP2[0] / EVAL_GAMES;
+        this.selfTieRate = (double)selfPlay[0] / EVAL_GAMES;
+        return this;
+    }
+
+
+    /* Plays EVAL_GAMES games, returns the number of ties, p1 wins, and p2 wins (indexed by checkForWinner) */
+    private static int[] evaluate(Game ticTacToe) {
+        int[] results = new int[3];
+        for(int i = 0; i < EVAL_GAMES; i++) {
+            results[ticTacToe.simulate()]++;
+        }
+        return results;
+    }
+
+
+    public double getGamesPerSec() {
+        return this.gamesPerSec;
+    }
+
+
+    public int getNumGames() {
+        return this.numGames;
+    }
+
+
+    /* Ranks trials that reached the target ahead of those that did not,
+     * then by fewest games to the target, then by highest mean optimal move rate */
+    @Override
+    public int compareTo(SweepTrial other) {
+        boolean reached = this.gamesToTarget != -1;
+        boolean otherReached = other.gamesToTarget != -1;
+        if(reached != otherReached) {
+            return reached ? -1 : 1;
+        }
+        if(reached && this.gamesToTarget != other.gamesToTarget) {
+            return Integer.compare(this.gamesToTarget, other.gamesToTarget);
+        }
+        return Double.compare(other.p1OptimalRate + other.p2OptimalRate, this.p1OptimalRate + this.p2OptimalRate);
+    }
+
+
+    /* Returns a short description of the configuration */
+    public String describe() {
+        return "gamma=" + this.gamma + " alpha=" + this.alpha + " epsilon=" + this.epsilon +
+               " alphaDecay=" + this.alphaDecayRate + " epsilonDecay=" + this.epsilonDecayRate;
+    }
+
+
+    /* Returns the trials configuration and results as a CSV row (see CSV_HEADER) */
+    public String toCsvRow() {
+        String gamesToTargetStr = "";
+        if(this.gamesToTarget != -1) {
+            gamesToTargetStr = Integer.toString(this.gamesToTarget);
+        }
+        return this.gamma + "," + this.alpha + "," + this.epsilon + "," + this.alphaDecayRate + "," + this.epsilonDecayRate + "," +
+               this.numGames + "," + Math.round(this.gamesPerSec) + "," + gamesToTargetStr + "," +
+               round(this.p1OptimalRate) + "," + round(this.p2OptimalRate) + "," +
+               round(this.p1WinRate) + "," + round(this.p1TieRate) + "," +
+               round(this.p2WinRate) + "," + round(this.p2TieRate) + "," + round(this.selfTieRate);
+    }
+
+
+    private static double round(double rate) {
+        return Math.round(rate * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,83 @@
+/* Trains two Computer Players against eachother, checking every evalInterval games
+ * whether both greedy policies reach a target optimal move rate (see OptimalPolicy)
+ * Only training counts towards the time, not the optimal move rate checks */
+public class TrainingRun {
+    private ComputerPlayer p1;
+    private ComputerPlayer p2;
+    private Game ticTacToe;
+    private int evalInterval;
+    private long trainNanos;
+    private int gamesPlayed;
+    private int gamesToTarget; // -1 if the target was not reached
+    private double p1OptimalRate;
+    private double p2OptimalRate;
+
+    public TrainingRun(ComputerPlayer p1, ComputerPlayer p2, int evalInterval) throws InterruptedException {
+        this.p1 = p1;
+        this.p2 = p2;
+        this.ticTacToe = new Game(p1, p2);
+        this.evalInterval = evalInterval;
+        this.trainNanos = 0;
+        this.gamesPlayed = 0;
+        this.gamesToTarget = -1;
+    }
+
+
+    /* Trains until both players reach the target optimal move rate or maxGames games have been played in total,
+     * returns the games to the target (-1 if not reached) */
+    public int trainToTarget(double targetRate, int maxGames) {
+        while(this.gamesToTarget == -1 && this.gamesPlayed < maxGames) {
+            this.train(Math.min(this.evalInterval, maxGames - this.gamesPlayed));
+            this.checkRates();
+            if(this.p1OptimalRate >= targetRate && this.p2OptimalRate >= targetRate) {
+                this.gamesToTarget = this.gamesPlayed;
+            }
+        }
+        return this.gamesToTarget;
+    }
+
+
+    /* Trains until numGames games have been played in total (without checking the target) */
+    public void trainTo(int numGames) {
+        if(this.gamesPlayed < numGames) {
+            this.train(numGames - this.gamesPlayed);
+            this.checkRates();
+        }
+    }
+
+
+    public int getGamesPlayed() {
+        return this.gamesPlayed;
+    }
+
+
+    public long getTrainNanos() {
+        return this.trainNanos;
+    }
+
+
+    public double getP1OptimalRate() {
+        return this.p1OptimalRate;
+    }
+
+
+    public double getP2OptimalRate() {
+        return this.p2OptimalRate;
+    }
+
+
+    private void train(int numGames) {
+        long startTime = System.nanoTime();
+        for(int i = 0; i < numGames; i++) {
+            this.ticTacToe.trainGame();
+        }
+        this.trainNanos += System.nanoTime() - startTime;
+        this.gamesPlayed += numGames;
+    }
+
+
+    private void checkRates() {
+        this.p1OptimalRate = OptimalPolicy.optimalMoveRate(this.p1);
+        this.p2OptimalRate = OptimalPolicy.optimalMoveRate(this.p2);
+    }
+}
@@ -0,0 +1,121 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/* Streams training games into an append-only binary trajectory log
+ * Log layout:
+     * Header: int magic, int version
+     * Episode: byte numPlies, numPlies * (short stateCode, byte actionCode), float p1Reward, float p2Reward
+ * State and action codes are from BoardCodec, player1 makes the even plies */
+public class TrajectoryRecorder {
+    private FileChannel channel;
+    private ByteBuffer buffer; // episodes are batched here before each write to the channel
+    private short[] plyStates; // moves of the episode in progress
+    private byte[] plyActions;
+    private int numPlies;
+    private long episodesRecorded;
+    private boolean isClosed;
+
+    static int MAGIC = 0x54545452; // "TTTR"
+    static int VERSION = 1;
+    static int HEADER_SIZE = 8;
+    static int MAX_PLIES = 9;
+    static int PLY_SIZE = 3;
+    static int MAX_EPISODE_SIZE = 1 + (MAX_PLIES * PLY_SIZE) + 8;
+    static int BUFFER_SIZE = 1 << 16;
+
+    public TrajectoryRecorder(String logFile) throws IOException {
+        this.channel = FileChannel.open(Paths.get(logFile), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.plyStates = new short[MAX_PLIES];
+        this.plyActions = new byte[MAX_PLIES];
+        this.numPlies = 0;
+        this.episodesRecorded = 0;
+        this.isClosed = false;
+
+        if(this.channel.size() == 0) {
+            // new log, write the header
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            while(header.hasRemaining()) {
+                this.channel.write(header);
+            }
+        }
+        else {
+            // existing log, drop any episode that was cut off by a crash and append after the last complete one
+            long validLength = TrajectoryReplayer.validLength(this.channel);
+            this.channel.truncate(validLength);
+            this.channel.position(validLength);
+        }
+    }
+
+
+    public long getEpisodesRecorded() {
+        return this.episodesRecorded;
+    }
+
+
+    /* Records a move made from the given state */
+    public void recordMove(int stateCode, String action) {
+        if(this.numPlies < MAX_PLIES) {
+            this.plyStates[this.numPlies] = (short)stateCode;
+            this.plyActions[this.numPlies] = (byte)BoardCodec.encodeAction(action);
+            this.numPlies++;
+        }
+    }
+
+
+    /* Appends the episode in progress with each players final reward
+     * Whole episodes are buffered so the log never holds a partial game from a clean shutdown */
+    public synchronized void endEpisode(double p1Reward, double p2Reward) {
+        if(this.isClosed) {
+            this.numPlies = 0;
+            return;
+        }
+        if(this.buffer.remaining() < MAX_EPISODE_SIZE) {
+            this.flush();
+        }
+        this.buffer.put((byte)this.numPlies);
+        for(int i = 0; i < this.numPlies; i++) {
+            this.buffer.putShort(this.plyStates[i]);
+            this.buffer.put(this.plyActions[i]);
+        }
+        this.buffer.putFloat((float)p1Reward);
+        this.buffer.putFloat((float)p2Reward);
+        this.numPlies = 0;
+        this.episodesRecorded++;
+    }
+
+
+    /* Writes buffered episodes to the log */
+    public synchronized void flush() {
+        try {
+            this.buffer.flip();
+            while(this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        } catch (IOException e) {
+            System.out.println("File Error");
+            e.printStackTrace();
+        }
+    }
+
+
+    /* Flushes and closes the log, episodes ended afterwards are dropped */
+    public synchronized void close() {
+        if(this.isClosed) {
+            return;
+        }
+        this.flush();
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            System.out.println("File Error");
+            e.printStackTrace();
+        }
+        this.isClosed = true;
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/* Trains Computer Players offline from a trajectory log (see TrajectoryRecorder)
+ * Each episode is fed through the same Q updates Game.train() makes online,
+ * so the log can be retrained under any gamma/alpha without simulating the games again */
+public class TrajectoryReplayer {
+    private String logFile;
+    private ComputerPlayer[] players;
+    private long episodesReplayed;
+    private double replaySeconds;
+
+    static long WINDOW_SIZE = 1L << 26; // bytes of the log mapped at a time
+
+    public TrajectoryReplayer(String logFile, ComputerPlayer player1, ComputerPlayer player2) {
+        this.logFile = logFile;
+        this.players = new ComputerPlayer[] {player1, player2};
+        this.episodesReplayed = 0;
+        this.replaySeconds = 0;
+    }
+
+
+    /* Replays every complete episode in the log */
+    public void replay() throws IOException {
+        long startTime = System.nanoTime();
+        FileChannel channel = FileChannel.open(Paths.get(this.logFile), StandardOpenOption.READ);
+        long end = validLength(channel);
+        long position = TrajectoryRecorder.HEADER_SIZE;
+        while(position < end) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, end - position));
+            // replay the episodes that fit entirely inside this window, the rest go in the next one
+            while(window.hasRemaining() && episodeSize(window.get(window.position())) <= window.remaining()) {
+                this.replayEpisode(window);
+            }
+            position += window.position();
+        }
+        channel.close();
+        this.replaySeconds = (System.nanoTime() - startTime) / 1e9;
+    }
+
+
+    /* Applies the Q updates of the episode at the windows position */
+    private void replayEpisode(ByteBuffer window) {
+        int numPlies = window.get();
+        for(int ply = 0; ply < numPlies; ply++) {
+            String state = BoardCodec.decode(window.getShort());
+            String action = BoardCodec.decodeAction(window.get());
+            ComputerPlayer currentPlayer = this.players[ply % 2];
+            if(ply > 1) {
+                // update Q only after each player has made their first move
+                currentPlayer.setNextState(state);
+                currentPlayer.updateQ(0.0);
+            }
+            currentPlayer.setCurrState(state);
+            currentPlayer.setLastAction(action);
+        }
+        this.players[0].updateQEnd(window.getFloat());
+        this.players[1].updateQEnd(window.getFloat());
+
+        for(ComputerPlayer player : this.players) {
+            if(player.isUsingDecay()) {
+                player.decayAlpha();
+                player.decayEpsilon();
+            }
+        }
+        this.episodesReplayed++;
+    }
+
+
+    /* Displays the replay throughput */
+    public void displayStats() {
+        System.out.println();
+        System.out.println("Episodes Replayed: " + this.episodesReplayed);
+        System.out.println("Replay Time: " + Math.round(this.replaySeconds * 100) / 100.0 + "s");
+        System.out.println("Episodes/sec: " + Math.round(this.episodesReplayed / this.replaySeconds));
+        System.out.println();
+    }
+
+
+    /* Returns the number of bytes an episode with the given number of plies takes in the log */
+    static int episodeSize(int numPlies) {
+        return 1 + (numPlies * TrajectoryRecorder.PLY_SIZE) + 8;
+    }
+
+
+    /* Checks the logs header and returns the length of the log up to the end of its last complete episode */
+    static long validLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(TrajectoryRecorder.HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        if(size < TrajectoryRecorder.HEADER_SIZE || header.getInt() != TrajectoryRecorder.MAGIC) {
+            throw new IOException("Not a trajectory log");
+        }
+        if(header.getInt() != TrajectoryRecorder.VERSION) {
+            throw new IOException("Unsupported trajectory log version");
+        }
+
+        long position = TrajectoryRecorder.HEADER_SIZE;
+        while(position < size) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+            int windowEnd = 0;
+            while(windowEnd < window.limit()) {
+                int numPlies = window.get(windowEnd);
+                if(numPlies < 0 || numPlies > TrajectoryRecorder.MAX_PLIES) {
+                    // corrupt episode, nothing after it can be trusted
+                    return position + windowEnd;
+                }
+                if(windowEnd + episodeSize(numPlies) > window.limit()) {
+                    break;
+                }
+                windowEnd += episodeSize(numPlies);
+            }
+            if(windowEnd == 0 || (position + window.limit() == size && windowEnd < window.limit())) {
+                // trailing partial episode
+                return position + windowEnd;
+            }
+            position += windowEnd;
+        }
+        return position;
+    }
+}